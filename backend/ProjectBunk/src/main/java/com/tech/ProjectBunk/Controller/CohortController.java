@@ -0,0 +1,30 @@
+package com.tech.ProjectBunk.Controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.tech.ProjectBunk.Service.CohortAggregateService;
+
+@RestController
+@CrossOrigin(origins = "http://localhost:3000")
+public class CohortController {
+
+    @Autowired
+    private CohortAggregateService cohortAggregateService;
+
+    // Class-wide dashboards read the running aggregates, nobody gets re-scraped
+    @GetMapping("/cohort/subjects")
+    public ResponseEntity<List<CohortAggregateService.CohortSummaryDTO>> subjectSummaries() {
+        return ResponseEntity.ok(cohortAggregateService.getSubjectSummaries());
+    }
+
+    @GetMapping("/cohort/faculty")
+    public ResponseEntity<List<CohortAggregateService.CohortSummaryDTO>> facultySummaries() {
+        return ResponseEntity.ok(cohortAggregateService.getFacultySummaries());
+    }
+}
@@ -1,11 +1,10 @@
 package com.tech.ProjectBunk.Controller;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -16,6 +15,9 @@ import org.springframework.web.servlet.view.RedirectView;
 import com.tech.ProjectBunk.Model.SubjectAttendance;
 import com.tech.ProjectBunk.Model.TodayTimetableEntry;
 import com.tech.ProjectBunk.Service.AttendanceService;
+import com.tech.ProjectBunk.Service.CohortAggregateService;
+import com.tech.ProjectBunk.Service.ExtractorService;
+import com.tech.ProjectBunk.Service.ResponseShapingService;
 
 import jakarta.servlet.http.HttpSession;
 
@@ -26,6 +28,15 @@ public class LoginController {
     @Autowired
     private AttendanceService attendanceService;
 
+    @Autowired
+    private CohortAggregateService cohortAggregateService;
+
+    @Autowired
+    private ExtractorService extractorService;
+
+    @Autowired
+    private ResponseShapingService responseShapingService;
+
     @PostMapping("/login")
     public RedirectView loginUser(@RequestParam String username, HttpSession session) {
         session.setAttribute("username", username); // Store in session
@@ -35,41 +46,64 @@ public class LoginController {
     @PostMapping("/submit")
     public ResponseEntity<?> handleLogin(
             @RequestParam("rollno") String rollNo,
-            @RequestParam("password") String password) {
+            @RequestParam("password") String password,
+            @RequestParam(value = "budgetMs", required = false) Long budgetMs,
+            @RequestParam(value = "allowPartial", defaultValue = "false") boolean allowPartial,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestParam(value = "since", required = false) String since) {
         try {
             System.out.println("[DEBUG] Received rollNo: " + rollNo + ", password: " + password);
-            ProcessBuilder pb = new ProcessBuilder("python3", "src/main/python/extractor.py", rollNo, password);
-            //pb.directory(new java.io.File("backend/ProjectBunk"));
-            pb.redirectErrorStream(true);
-            Process process = pb.start();
-
-            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-            StringBuilder jsonBuilder = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                jsonBuilder.append(line);
-            }
 
-            int exitCode = process.waitFor();
-            System.out.println("[DEBUG] Python script exit code: " + exitCode);
-            System.out.println("[DEBUG] Python script output: " + jsonBuilder.toString());
-            if (exitCode != 0) {
-                System.out.println("[ERROR] Python script failed with exit code: " + exitCode);
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Python script error, exited with code: " + exitCode);
+            ResponseShapingService.FieldSelection selection = null;
+            if (fields != null && !fields.isBlank()) {
+                try {
+                    selection = responseShapingService.parseFields(fields);
+                } catch (IllegalArgumentException e) {
+                    System.out.println("[ERROR] Invalid fields parameter: " + e.getMessage());
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+                }
             }
+            boolean hasSince = since != null && !since.isBlank();
+            if (selection != null && hasSince) {
+                // A delta is only useful with the token for the next one
+                selection = selection.withVersion();
+            }
+
+            long budget = extractorService.resolveBudgetMs(budgetMs);
+            ExtractorService.ExtractionResult result = extractorService.extract(rollNo, password, budget);
+            System.out.println("[DEBUG] Python script exit code: " + result.getExitCode() + ", timed out: " + result.isTimedOut());
+            System.out.println("[DEBUG] Python script output: " + result.getSections());
 
-            String jsonOutput = jsonBuilder.toString();
-            if (jsonOutput.isEmpty()) {
+            if (result.getSections().isEmpty() && result.getExitCode() == 0) {
                 System.out.println("[ERROR] No output from Python script.");
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body("No output from Python script.");
             }
 
+            // Sections that made it out before a deadline or a late failure are still usable if the client opted in
+            boolean partial = !result.isComplete();
+            if (partial && !(allowPartial && result.hasSection("attendance"))) {
+                if (result.isDeadlineExceeded()) {
+                    System.out.println("[ERROR] Python script did not finish within " + budget + " ms");
+                    return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                        .body("ERP did not respond within " + budget + " ms");
+                }
+                String error = result.getError();
+                System.out.println("[ERROR] Python script failed with exit code: " + result.getExitCode() + ", error: " + error);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Python script error, exited with code: " + result.getExitCode()
+                        + (error != null ? " (" + error + ")" : ""));
+            }
+
             // Try parsing JSON, catch parsing errors
             AttendanceService.AttendanceAndTimetableDTO dto;
             try {
-                dto = attendanceService.parseAttendanceAndTimetable(jsonOutput);
+                dto = attendanceService.parseAttendanceAndTimetable(result.getSections());
+                if (partial) {
+                    dto.setPartial(true);
+                    dto.setMissingSections(result.getMissingSections());
+                    System.out.println("[DEBUG] Returning partial response, missing: " + dto.getMissingSections());
+                }
                 System.out.println("[DEBUG] Successfully parsed attendance and timetable DTO.");
                 System.out.println("[DEBUG] Attendance count: " + (dto.getAttendance() != null ? dto.getAttendance().size() : 0));
                 System.out.println("[DEBUG] Timetable count: " + (dto.getTodayTimetable() != null ? dto.getTodayTimetable().size() : 0));
@@ -87,6 +121,9 @@ public class LoginController {
                     .body("No attendance data received from Python script.");
             }
 
+            // Feed the anonymized class-wide aggregates
+            cohortAggregateService.record(cohortAggregateService.hashStudent(rollNo), dto.getAttendance());
+
             // Log timetable status for debugging
             if (dto.getTodayTimetable() == null || dto.getTodayTimetable().isEmpty()) {
                 System.out.println("[DEBUG] No timetable data - this is normal for holidays/weekends");
@@ -94,6 +131,20 @@ public class LoginController {
                 System.out.println("[DEBUG] Timetable data found with " + dto.getTodayTimetable().size() + " entries");
             }
 
+            // Version is over the full data, so the client can ask for a delta next time whatever it projected
+            if (hasSince || (selection != null && selection.includesVersion())) {
+                dto.setVersion(responseShapingService.computeVersion(dto));
+            }
+            if (hasSince) {
+                dto = responseShapingService.delta(dto, since);
+            }
+
+            if (selection != null) {
+                String body = responseShapingService.project(dto, selection);
+                System.out.println("[DEBUG] Projected DTO sent to frontend (" + body.length() + " chars): " + body);
+                return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+            }
+
             System.out.println("[DEBUG] DTO sent to frontend: " + new com.fasterxml.jackson.databind.ObjectMapper().writeValueAsString(dto));
             return ResponseEntity.ok(dto);
 
@@ -1,5 +1,6 @@
 package com.tech.ProjectBunk.Service;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tech.ProjectBunk.Model.SubjectAttendance;
@@ -11,12 +12,25 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 
 @Service
 public class AttendanceService {
 
     private static final double REQUIRED_PERCENTAGE = 75.0;
 
+    // Sections the extractor emits, in the order it emits them, mapped to their DTO property names
+    public static final Map<String, String> SECTIONS = sections();
+
+    private static Map<String, String> sections() {
+        Map<String, String> sections = new LinkedHashMap<>();
+        sections.put("attendance", "attendance");
+        sections.put("today_timetable", "todayTimetable");
+        sections.put("datewise_attendance", "datewiseAttendance");
+        return Collections.unmodifiableMap(sections);
+    }
+
     // ✅ Existing method with enhanced null safety
    public void calculateAllThresholds(List<SubjectAttendance> subjects) {
     if (subjects == null) {
@@ -111,18 +125,24 @@ public class AttendanceService {
         private List<SubjectAttendance> attendance;
         private List<TodayTimetableEntry> todayTimetable;
         private List<DatewiseAttendanceEntry> datewiseAttendance;
+        private boolean partial;
+        private List<String> missingSections;
+        private String version;
+        private boolean delta;
 
         public AttendanceAndTimetableDTO() {
             // Initialize with safe defaults
             this.attendance = new ArrayList<>();
             this.todayTimetable = new ArrayList<>();
             this.datewiseAttendance = new ArrayList<>();
+            this.missingSections = new ArrayList<>();
         }
         
         public AttendanceAndTimetableDTO(List<SubjectAttendance> attendance, List<TodayTimetableEntry> todayTimetable, List<DatewiseAttendanceEntry> datewiseAttendance) {
             this.attendance = (attendance != null) ? attendance : new ArrayList<>();
             this.todayTimetable = (todayTimetable != null) ? todayTimetable : new ArrayList<>();
             this.datewiseAttendance = (datewiseAttendance != null) ? datewiseAttendance : new ArrayList<>();
+            this.missingSections = new ArrayList<>();
         }
         
         public List<SubjectAttendance> getAttendance() { 
@@ -148,6 +168,42 @@ public class AttendanceService {
         public void setDatewiseAttendance(List<DatewiseAttendanceEntry> datewiseAttendance) { 
             this.datewiseAttendance = (datewiseAttendance != null) ? datewiseAttendance : new ArrayList<>(); 
         }
+
+        // True when the extractor hit its deadline and only some sections made it back
+        public boolean isPartial() {
+            return partial;
+        }
+
+        public void setPartial(boolean partial) {
+            this.partial = partial;
+        }
+
+        public List<String> getMissingSections() {
+            return (missingSections != null) ? missingSections : new ArrayList<>();
+        }
+
+        public void setMissingSections(List<String> missingSections) {
+            this.missingSections = (missingSections != null) ? missingSections : new ArrayList<>();
+        }
+
+        // Token the client sends back as "since" to get a delta next time; only sent when asked for
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        public String getVersion() {
+            return version;
+        }
+
+        public void setVersion(String version) {
+            this.version = version;
+        }
+
+        // True when attendance and datewiseAttendance only hold entries changed since the client's version
+        public boolean isDelta() {
+            return delta;
+        }
+
+        public void setDelta(boolean delta) {
+            this.delta = delta;
+        }
     }
 
     // Enhanced method to parse new extractor output with comprehensive null safety
@@ -171,7 +227,18 @@ public class AttendanceService {
             System.out.println("[ERROR] Parsed map is null");
             throw new IOException("Failed to parse JSON into map");
         }
-        
+
+        return parseAttendanceAndTimetable(map);
+    }
+
+    // Builds the DTO from already-decoded extractor sections; missing sections come back as empty lists
+    public AttendanceAndTimetableDTO parseAttendanceAndTimetable(Map<String, Object> map) {
+        if (map == null) {
+            throw new IllegalArgumentException("Extractor sections cannot be null");
+        }
+
+        ObjectMapper mapper = new ObjectMapper();
+
         // Handle attendance data safely
         List<SubjectAttendance> attendance = new ArrayList<>();
         Object attendanceData = map.get("attendance");
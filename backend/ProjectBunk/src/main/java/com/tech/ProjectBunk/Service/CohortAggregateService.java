@@ -0,0 +1,344 @@
+package com.tech.ProjectBunk.Service;
+
+import com.tech.ProjectBunk.Model.SubjectAttendance;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Anonymized class-wide attendance statistics, updated as scrapes complete.
+ * Each student counts once per subject and faculty: their last contribution is
+ * kept under a salted hash of the roll number and swapped out on a re-scrape.
+ * Contributions not refreshed within cohort.max-age-days are retracted, so past
+ * semesters and students who left drop out. Buckets with fewer than MIN_SAMPLES
+ * students are never served. Everything is in memory and starts empty on restart.
+ */
+@Service
+public class CohortAggregateService {
+
+    private static final double REQUIRED_PERCENTAGE = 75.0;
+    private static final long REQUIRED_HUNDREDTHS = Math.round(REQUIRED_PERCENTAGE * 100);
+
+    // One bucket per whole percent (0..100), used as a mergeable percentile sketch
+    private static final int BUCKETS = 101;
+
+    // Smaller buckets would let a single student's percentage be read off a subject or faculty
+    static final int MIN_SAMPLES = 5;
+
+    private final ConcurrentHashMap<String, CohortStats> bySubject = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CohortStats> byFaculty = new ConcurrentHashMap<>();
+
+    // Last contribution each student made, keyed by student hash + bucket key
+    private final ConcurrentHashMap<String, Contribution> contributions = new ConcurrentHashMap<>();
+
+    // Roughly one semester; older contributions are retracted by expireStale()
+    @Value("${cohort.max-age-days:120}")
+    private long maxAgeDays = 120;
+
+    // Fresh per process; the aggregates are in-memory too, so nothing needs to survive a restart
+    private final byte[] salt = new byte[16];
+
+    public CohortAggregateService() {
+        new SecureRandom().nextBytes(salt);
+    }
+
+    // Salted SHA-256 of the roll number, so contributions can be replaced without storing who made them
+    public String hashStudent(String rollNo) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(salt);
+            digest.update((rollNo != null ? rollNo.trim().toUpperCase() : "").getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Called on the request path after every successful scrape - never blocks on a lock
+    public void record(String studentHash, List<SubjectAttendance> subjects) {
+        if (studentHash == null || subjects == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+
+        // A faculty often teaches one student several subjects (theory + lab), so held/attended
+        // are summed per faculty first and the faculty gets one contribution per student
+        Map<String, long[]> facultyTotals = new LinkedHashMap<>();
+
+        for (SubjectAttendance subject : subjects) {
+            if (subject == null) {
+                continue;
+            }
+
+            int held = subject.getHeld();
+            int attended = subject.getAttended();
+            if (held <= 0) {
+                // No classes held yet, nothing meaningful to aggregate
+                continue;
+            }
+
+            String subjectKey = normalizeKey(subject.getSubject());
+            if (subjectKey != null) {
+                contribute(bySubject, "subject", subjectKey, studentHash, toHundredths(held, attended), now);
+            }
+
+            String facultyKey = normalizeKey(subject.getFaculty());
+            if (facultyKey != null) {
+                long[] totals = facultyTotals.computeIfAbsent(facultyKey, k -> new long[2]);
+                totals[0] += held;
+                totals[1] += attended;
+            }
+        }
+
+        for (Map.Entry<String, long[]> faculty : facultyTotals.entrySet()) {
+            long[] totals = faculty.getValue();
+            contribute(byFaculty, "faculty", faculty.getKey(), studentHash, toHundredths(totals[0], totals[1]), now);
+        }
+    }
+
+    private static long toHundredths(long held, long attended) {
+        return Math.round(Math.min(100.0, Math.max(0.0, (attended * 100.0) / held)) * 100);
+    }
+
+    private void contribute(Map<String, CohortStats> stats, String kind, String key, String studentHash,
+            long hundredths, long now) {
+        CohortStats bucket = stats.computeIfAbsent(key, k -> new CohortStats());
+        // put() swaps atomically, so every value is retracted exactly once by whoever replaced it
+        Contribution previous = contributions.put(studentHash + "|" + kind + "|" + key,
+            new Contribution(bucket, hundredths, now));
+        if (previous != null) {
+            previous.bucket().remove(previous.hundredths());
+        }
+        bucket.add(hundredths);
+    }
+
+    @Scheduled(fixedDelayString = "${cohort.expiry-check-ms:3600000}")
+    public void expireStale() {
+        expireOlderThan(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(maxAgeDays));
+    }
+
+    // Retracts every contribution last refreshed before the cutoff
+    void expireOlderThan(long cutoffMillis) {
+        int expired = 0;
+        for (Map.Entry<String, Contribution> entry : contributions.entrySet()) {
+            Contribution contribution = entry.getValue();
+            // remove(key, value) loses to a concurrent re-scrape, which then retracts the old value itself
+            if (contribution.recordedAt() < cutoffMillis && contributions.remove(entry.getKey(), contribution)) {
+                contribution.bucket().remove(contribution.hundredths());
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            System.out.println("[DEBUG] Expired " + expired + " stale cohort contributions");
+        }
+    }
+
+    public List<CohortSummaryDTO> getSubjectSummaries() {
+        return summarize(bySubject);
+    }
+
+    public List<CohortSummaryDTO> getFacultySummaries() {
+        return summarize(byFaculty);
+    }
+
+    private List<CohortSummaryDTO> summarize(Map<String, CohortStats> stats) {
+        List<CohortSummaryDTO> summaries = new ArrayList<>();
+        for (Map.Entry<String, CohortStats> entry : stats.entrySet()) {
+            CohortSummaryDTO summary = entry.getValue().snapshot(entry.getKey());
+            if (summary.getSamples() >= MIN_SAMPLES) {
+                summaries.add(summary);
+            }
+        }
+        summaries.sort((a, b) -> a.getKey().compareToIgnoreCase(b.getKey()));
+        return summaries;
+    }
+
+    private static String normalizeKey(String key) {
+        if (key == null) {
+            return null;
+        }
+        String trimmed = key.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private record Contribution(CohortStats bucket, long hundredths, long recordedAt) {}
+
+    // Running statistics for one subject or faculty; every field is a striped counter
+    static class CohortStats {
+        private final LongAdder samples = new LongAdder();
+        private final LongAdder belowRequired = new LongAdder();
+        // Sum of percentages in hundredths so the mean keeps two decimals
+        private final LongAdder percentageSum = new LongAdder();
+        private final LongAdder[] histogram = new LongAdder[BUCKETS];
+
+        CohortStats() {
+            for (int i = 0; i < BUCKETS; i++) {
+                histogram[i] = new LongAdder();
+            }
+        }
+
+        void add(long hundredths) {
+            update(hundredths, 1);
+        }
+
+        // Retracts a contribution made earlier with the same value
+        void remove(long hundredths) {
+            update(hundredths, -1);
+        }
+
+        private void update(long hundredths, int sign) {
+            samples.add(sign);
+            percentageSum.add(sign * hundredths);
+            if (hundredths < REQUIRED_HUNDREDTHS) {
+                belowRequired.add(sign);
+            }
+            histogram[(int) (hundredths / 100)].add(sign);
+        }
+
+        // Sketches from different nodes or shards can be combined without losing percentiles
+        void merge(CohortStats other) {
+            samples.add(other.samples.sum());
+            belowRequired.add(other.belowRequired.sum());
+            percentageSum.add(other.percentageSum.sum());
+            for (int i = 0; i < BUCKETS; i++) {
+                histogram[i].add(other.histogram[i].sum());
+            }
+        }
+
+        CohortSummaryDTO snapshot(String key) {
+            // Counters are read independently, so a snapshot taken mid-update may be off by a few samples
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = histogram[i].sum();
+                total += counts[i];
+            }
+
+            CohortSummaryDTO summary = new CohortSummaryDTO();
+            summary.setKey(key);
+            summary.setSamples(total);
+            if (total == 0) {
+                return summary;
+            }
+
+            long sampleCount = Math.max(1, samples.sum());
+            summary.setMeanPercentage(round2(percentageSum.sum() / 100.0 / sampleCount));
+            summary.setBelowRequiredShare(round2(Math.min(1.0, belowRequired.sum() / (double) sampleCount)));
+            summary.setP25(percentile(counts, total, 0.25));
+            summary.setMedian(percentile(counts, total, 0.50));
+            summary.setP75(percentile(counts, total, 0.75));
+            summary.setP90(percentile(counts, total, 0.90));
+            return summary;
+        }
+
+        private static double percentile(long[] counts, long total, double quantile) {
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank && seen > 0) {
+                    return i;
+                }
+            }
+            return BUCKETS - 1;
+        }
+
+        private static double round2(double value) {
+            return Math.round(value * 100.0) / 100.0;
+        }
+    }
+
+    // Response body for the cohort dashboard endpoints
+    public static class CohortSummaryDTO {
+        private String key;
+        private long samples;
+        private double meanPercentage;
+        private double belowRequiredShare;
+        private double p25;
+        private double median;
+        private double p75;
+        private double p90;
+
+        public CohortSummaryDTO() {
+            this.key = "";
+        }
+
+        public String getKey() {
+            return (key != null) ? key : "";
+        }
+
+        public void setKey(String key) {
+            this.key = (key != null) ? key : "";
+        }
+
+        public long getSamples() {
+            return samples;
+        }
+
+        public void setSamples(long samples) {
+            this.samples = samples;
+        }
+
+        public double getMeanPercentage() {
+            return meanPercentage;
+        }
+
+        public void setMeanPercentage(double meanPercentage) {
+            this.meanPercentage = meanPercentage;
+        }
+
+        public double getBelowRequiredShare() {
+            return belowRequiredShare;
+        }
+
+        public void setBelowRequiredShare(double belowRequiredShare) {
+            this.belowRequiredShare = belowRequiredShare;
+        }
+
+        public double getP25() {
+            return p25;
+        }
+
+        public void setP25(double p25) {
+            this.p25 = p25;
+        }
+
+        public double getMedian() {
+            return median;
+        }
+
+        public void setMedian(double median) {
+            this.median = median;
+        }
+
+        public double getP75() {
+            return p75;
+        }
+
+        public void setP75(double p75) {
+            this.p75 = p75;
+        }
+
+        public double getP90() {
+            return p90;
+        }
+
+        public void setP90(double p90) {
+            this.p90 = p90;
+        }
+    }
+}
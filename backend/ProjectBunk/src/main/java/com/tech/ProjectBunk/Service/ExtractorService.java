@@ -0,0 +1,200 @@
+package com.tech.ProjectBunk.Service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the Python extractor under a hard deadline. The extractor prints one JSON
+ * object per finished section, so when the deadline hits the process is killed
+ * and whatever sections were already printed are handed back.
+ */
+@Service
+public class ExtractorService {
+
+    // How long to wait for stdout to drain after the process exits or is killed
+    private static final long READER_GRACE_MS = 500;
+
+    // The extractor's own deadline falls this much before ours, so it can report a timeout before being killed
+    private static final long TEARDOWN_MARGIN_MS = 1000;
+
+    // Exit code extractor.py uses when it runs out of budget itself (same as coreutils timeout)
+    static final int DEADLINE_EXIT_CODE = 124;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final String pythonCommand;
+    private final String scriptPath;
+    private final long defaultBudgetMs;
+
+    public ExtractorService(
+            @Value("${extractor.python:python3}") String pythonCommand,
+            @Value("${extractor.script:src/main/python/extractor.py}") String scriptPath,
+            @Value("${extractor.deadline-ms:25000}") long defaultBudgetMs) {
+        this.pythonCommand = pythonCommand;
+        this.scriptPath = scriptPath;
+        this.defaultBudgetMs = defaultBudgetMs;
+    }
+
+    // Requested budgets are clamped to the configured one so a client cannot pin a process for longer
+    public long resolveBudgetMs(Long requestedBudgetMs) {
+        if (requestedBudgetMs == null || requestedBudgetMs <= 0) {
+            return defaultBudgetMs;
+        }
+        return Math.min(requestedBudgetMs, defaultBudgetMs);
+    }
+
+    public ExtractionResult extract(String rollNo, String password, long budgetMs) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMs);
+
+        // Absolute wall-clock deadline, so interpreter startup and imports count against the budget
+        long margin = Math.min(TEARDOWN_MARGIN_MS, budgetMs / 4);
+        ProcessBuilder pb = new ProcessBuilder(pythonCommand, scriptPath, rollNo, password);
+        pb.environment().put("EXTRACTOR_DEADLINE_EPOCH_MS", String.valueOf(System.currentTimeMillis() + budgetMs - margin));
+        pb.redirectErrorStream(true);
+        Process process = pb.start();
+
+        ExtractionResult result = new ExtractionResult();
+
+        // stdout is drained on its own thread so a stalled pipe can never block past the deadline
+        Thread reader = new Thread(() -> readSections(process, result), "extractor-reader-" + process.pid());
+        reader.setDaemon(true);
+        reader.start();
+
+        boolean finished = false;
+        try {
+            long remainingNanos = deadline - System.nanoTime();
+            finished = remainingNanos > 0 && process.waitFor(remainingNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            // Request timeout, shutdown or client abort; the finally below still tears the process down
+            System.out.println("[ERROR] Interrupted while waiting for extractor pid " + process.pid());
+            Thread.currentThread().interrupt();
+            throw e;
+        } finally {
+            if (!finished) {
+                process.descendants().forEach(ProcessHandle::destroyForcibly);
+                process.destroyForcibly();
+            }
+        }
+
+        if (!finished) {
+            System.out.println("[ERROR] Extractor exceeded its " + budgetMs + " ms budget, killed pid " + process.pid());
+            result.setTimedOut(true);
+            process.waitFor(READER_GRACE_MS, TimeUnit.MILLISECONDS);
+        } else {
+            result.setExitCode(process.exitValue());
+        }
+
+        reader.join(READER_GRACE_MS);
+        if (reader.isAlive()) {
+            // Something else still holds the pipe open; leave the daemon reader behind rather than block the request
+            System.out.println("[WARNING] Extractor output still open after teardown, returning what was read");
+        } else {
+            result.setDrained(true);
+        }
+        return result;
+    }
+
+    private void readSections(Process process, ExtractionResult result) {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty()) {
+                    continue;
+                }
+                try {
+                    Map<String, Object> section = mapper.readValue(trimmed, new TypeReference<Map<String, Object>>() {});
+                    result.addSection(section);
+                } catch (Exception e) {
+                    // stderr is merged in, so warnings and tracebacks show up here
+                    System.out.println("[DEBUG] Ignoring non-JSON extractor output: " + trimmed);
+                }
+            }
+        } catch (IOException e) {
+            // Expected when the process is killed mid-read
+            System.out.println("[DEBUG] Extractor output closed: " + e.getMessage());
+        }
+    }
+
+    // What the extractor managed to produce before it exited or was killed
+    public static class ExtractionResult {
+        private final Map<String, Object> sections = new LinkedHashMap<>();
+        private volatile boolean timedOut;
+        private volatile int exitCode = -1;
+        private volatile boolean drained;
+
+        synchronized void addSection(Map<String, Object> section) {
+            if (section != null) {
+                sections.putAll(section);
+            }
+        }
+
+        public synchronized Map<String, Object> getSections() {
+            return new LinkedHashMap<>(sections);
+        }
+
+        public synchronized boolean hasSection(String name) {
+            return sections.containsKey(name);
+        }
+
+        public synchronized String getError() {
+            Object error = sections.get("error");
+            return (error != null) ? String.valueOf(error) : null;
+        }
+
+        // True only when the process had to be killed
+        public boolean isTimedOut() {
+            return timedOut;
+        }
+
+        // Killed by us, or the extractor gave up on its own deadline (including ERP read timeouts)
+        public boolean isDeadlineExceeded() {
+            return timedOut || exitCode == DEADLINE_EXIT_CODE;
+        }
+
+        void setTimedOut(boolean timedOut) {
+            this.timedOut = timedOut;
+        }
+
+        public int getExitCode() {
+            return exitCode;
+        }
+
+        void setExitCode(int exitCode) {
+            this.exitCode = exitCode;
+        }
+
+        void setDrained(boolean drained) {
+            this.drained = drained;
+        }
+
+        // A clean exit is not enough: output still stuck in the pipe means sections may be missing
+        public boolean isComplete() {
+            return !timedOut && exitCode == 0 && drained && getMissingSections().isEmpty();
+        }
+
+        // Reported under the DTO property names, which are also the fields= names
+        public List<String> getMissingSections() {
+            List<String> missing = new ArrayList<>();
+            for (Map.Entry<String, String> section : AttendanceService.SECTIONS.entrySet()) {
+                if (!hasSection(section.getKey())) {
+                    missing.add(section.getValue());
+                }
+            }
+            return missing;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.tech.ProjectBunk.Service;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.tech.ProjectBunk.Model.DatewiseAttendanceEntry;
+import com.tech.ProjectBunk.Model.SubjectAttendance;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Trims the /submit payload for clients that do not need all of it: a fields=
+ * projection picks DTO sections and SubjectAttendance properties, and a delta
+ * against the client's last version drops subjects and datewise rows it already has.
+ */
+@Service
+public class ResponseShapingService {
+
+    static final String VERSION_PREFIX = "v3.";
+    static final String VERSION_FIELD = "version";
+
+    // Per subject: 64-bit key digest + 64-bit content digest
+    private static final int SUBJECT_ENTRY_BYTES = 16;
+    // Datewise history: row count + 64-bit digests of all rows but the last, and all rows but the first
+    private static final int DATEWISE_BLOCK_BYTES = 4 + 8 + 8;
+
+    private static final String DTO_FILTER = "attendanceDtoFilter";
+    private static final String SUBJECT_FILTER = "subjectAttendanceFilter";
+
+    // Sections that fields= can select; the metadata below is always sent
+    private static final Set<String> SECTION_FIELDS = Set.of("attendance", "todayTimetable", "datewiseAttendance");
+    private static final Set<String> METADATA_FIELDS = Set.of("partial", "missingSections", "delta");
+
+    // Filters are attached through mix-ins so the models and the default ObjectMapper stay untouched
+    @JsonFilter(DTO_FILTER)
+    private interface DtoFilterMixIn {}
+
+    @JsonFilter(SUBJECT_FILTER)
+    private interface SubjectFilterMixIn {}
+
+    private final ObjectMapper projectionMapper;
+    private final Set<String> subjectFields;
+
+    public ResponseShapingService() {
+        this.projectionMapper = new ObjectMapper();
+        this.projectionMapper.addMixIn(AttendanceService.AttendanceAndTimetableDTO.class, DtoFilterMixIn.class);
+        this.projectionMapper.addMixIn(SubjectAttendance.class, SubjectFilterMixIn.class);
+
+        Set<String> names = new HashSet<>();
+        projectionMapper.getSerializationConfig()
+            .introspect(projectionMapper.constructType(SubjectAttendance.class))
+            .findProperties()
+            .forEach(property -> names.add(property.getName()));
+        this.subjectFields = Set.copyOf(names);
+    }
+
+    // A validated fields= value, e.g. "attendance.subject,attendance.bunk75,todayTimetable"
+    public static class FieldSelection {
+        private final Set<String> sections;
+        private final Set<String> subjectProperties;
+
+        private FieldSelection(Set<String> sections, Set<String> subjectProperties) {
+            this.sections = sections;
+            this.subjectProperties = subjectProperties;
+        }
+
+        public boolean includesVersion() {
+            return sections.contains(VERSION_FIELD);
+        }
+
+        // A delta is useless without the token for the next one, whatever else was projected
+        public FieldSelection withVersion() {
+            Set<String> withVersion = new LinkedHashSet<>(sections);
+            withVersion.add(VERSION_FIELD);
+            return new FieldSelection(withVersion, subjectProperties);
+        }
+    }
+
+    // Parsed before the scrape, so a typo costs a 400 and not an ERP round trip
+    public FieldSelection parseFields(String fields) {
+        Set<String> sections = new LinkedHashSet<>(METADATA_FIELDS);
+        Set<String> subjectProperties = new LinkedHashSet<>();
+
+        for (String raw : fields.split(",")) {
+            String field = raw.trim();
+            if (field.isEmpty()) {
+                continue;
+            }
+            if (field.startsWith("attendance.")) {
+                String property = field.substring("attendance.".length());
+                if (!subjectFields.contains(property)) {
+                    throw new IllegalArgumentException("Unknown attendance field: " + property);
+                }
+                sections.add("attendance");
+                subjectProperties.add(property);
+            } else if (SECTION_FIELDS.contains(field) || field.equals(VERSION_FIELD)) {
+                sections.add(field);
+            } else {
+                throw new IllegalArgumentException("Unknown field: " + field);
+            }
+        }
+        return new FieldSelection(sections, subjectProperties);
+    }
+
+    // Serializes only the selected properties
+    public String project(AttendanceService.AttendanceAndTimetableDTO dto, FieldSelection selection) throws JsonProcessingException {
+        // Selecting "attendance" on its own means every subject property
+        SimpleBeanPropertyFilter subjectFilter = selection.subjectProperties.isEmpty()
+            ? SimpleBeanPropertyFilter.serializeAll()
+            : SimpleBeanPropertyFilter.filterOutAllExcept(selection.subjectProperties);
+
+        SimpleFilterProvider filters = new SimpleFilterProvider()
+            .addFilter(DTO_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(selection.sections))
+            .addFilter(SUBJECT_FILTER, subjectFilter);
+
+        return projectionMapper.writer(filters).writeValueAsString(dto);
+    }
+
+    /**
+     * Version token: a (key, content) digest pair per subject, plus a fixed-size block
+     * for the datewise history. That history only grows at one end, so two digests over
+     * everything but its newest row tell which rows the client already has, and the
+     * token stays the same size all semester.
+     */
+    public String computeVersion(AttendanceService.AttendanceAndTimetableDTO dto) {
+        List<SubjectAttendance> attendance = dto.getAttendance();
+        List<DatewiseAttendanceEntry> datewise = dto.getDatewiseAttendance();
+        MessageDigest digest = sha256();
+
+        ByteBuffer buffer = ByteBuffer.allocate(4 + SUBJECT_ENTRY_BYTES * attendance.size() + DATEWISE_BLOCK_BYTES);
+        buffer.putInt(attendance.size());
+        Map<String, Integer> occurrences = new HashMap<>();
+        for (SubjectAttendance subject : attendance) {
+            buffer.putLong(subjectKey(digest, subject, occurrences));
+            buffer.putLong(subjectDigest(digest, subject));
+        }
+
+        int rows = datewise.size();
+        buffer.putInt(rows);
+        buffer.putLong(rowsDigest(digest, datewise.subList(0, Math.max(0, rows - 1))));
+        buffer.putLong(rowsDigest(digest, datewise.subList(Math.min(1, rows), rows)));
+        return VERSION_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * Keeps only the subjects that differ from the client's version, and the datewise
+     * rows it has not settled yet: its newest row (today's periods fill in during the
+     * day) plus any added since. Falls back to the full DTO when the version is
+     * unreadable, the response is partial, a subject disappeared, or older datewise
+     * history was rewritten.
+     */
+    public AttendanceService.AttendanceAndTimetableDTO delta(AttendanceService.AttendanceAndTimetableDTO dto, String since) {
+        if (dto.isPartial()) {
+            System.out.println("[DEBUG] Partial response, skipping delta");
+            return dto;
+        }
+
+        KnownVersion known = decodeVersion(since);
+        if (known == null) {
+            System.out.println("[DEBUG] Unreadable version token, sending full response");
+            return dto;
+        }
+
+        MessageDigest digest = sha256();
+        Map<String, Integer> occurrences = new HashMap<>();
+        Set<Long> seenKeys = new HashSet<>();
+
+        List<SubjectAttendance> changedSubjects = new ArrayList<>();
+        for (SubjectAttendance subject : dto.getAttendance()) {
+            long key = subjectKey(digest, subject, occurrences);
+            seenKeys.add(key);
+            if (!Objects.equals(known.subjects.get(key), subjectDigest(digest, subject))) {
+                changedSubjects.add(subject);
+            }
+        }
+
+        if (!seenKeys.containsAll(known.subjects.keySet())) {
+            // A delta cannot express removals, so the client has to resync
+            System.out.println("[DEBUG] Subjects removed since client version, sending full response");
+            return dto;
+        }
+
+        List<DatewiseAttendanceEntry> changedRows = changedDatewiseRows(digest, dto.getDatewiseAttendance(), known);
+        if (changedRows == null) {
+            System.out.println("[DEBUG] Datewise history rewritten since client version, sending full response");
+            return dto;
+        }
+
+        AttendanceService.AttendanceAndTimetableDTO delta =
+            new AttendanceService.AttendanceAndTimetableDTO(changedSubjects, dto.getTodayTimetable(), changedRows);
+        delta.setVersion(dto.getVersion());
+        delta.setDelta(true);
+        System.out.println("[DEBUG] Delta response with " + changedSubjects.size() + " subjects and "
+            + changedRows.size() + " datewise rows changed");
+        return delta;
+    }
+
+    // Null when the client's settled rows are no longer at either end of the history
+    private static List<DatewiseAttendanceEntry> changedDatewiseRows(MessageDigest digest,
+            List<DatewiseAttendanceEntry> rows, KnownVersion known) {
+        int current = rows.size();
+        int settled = Math.max(0, known.datewiseRows - 1);
+        if (current < known.datewiseRows) {
+            return null;
+        }
+        // Oldest row first: new rows were appended after the client's settled prefix
+        if (rowsDigest(digest, rows.subList(0, settled)) == known.headDigest) {
+            return new ArrayList<>(rows.subList(settled, current));
+        }
+        // Newest row first: new rows were prepended before the client's settled suffix
+        if (rowsDigest(digest, rows.subList(current - settled, current)) == known.tailDigest) {
+            return new ArrayList<>(rows.subList(0, current - settled));
+        }
+        return null;
+    }
+
+    // What a decoded version token says the client already has
+    private static class KnownVersion {
+        private final Map<Long, Long> subjects = new HashMap<>();
+        private int datewiseRows;
+        private long headDigest;
+        private long tailDigest;
+    }
+
+    private static KnownVersion decodeVersion(String version) {
+        if (version == null || !version.startsWith(VERSION_PREFIX)) {
+            return null;
+        }
+        ByteBuffer buffer;
+        try {
+            buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(version.substring(VERSION_PREFIX.length())));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        if (buffer.remaining() < 4) {
+            return null;
+        }
+        int subjects = buffer.getInt();
+        if (subjects < 0 || buffer.remaining() != (long) subjects * SUBJECT_ENTRY_BYTES + DATEWISE_BLOCK_BYTES) {
+            return null;
+        }
+
+        KnownVersion known = new KnownVersion();
+        for (int i = 0; i < subjects; i++) {
+            if (known.subjects.put(buffer.getLong(), buffer.getLong()) != null) {
+                // computeVersion never repeats a key, so this token was not ours
+                return null;
+            }
+        }
+        known.datewiseRows = buffer.getInt();
+        known.headDigest = buffer.getLong();
+        known.tailDigest = buffer.getLong();
+        return known.datewiseRows < 0 ? null : known;
+    }
+
+    // Repeated subject names get an occurrence number, so every key in a token is unique
+    private static long subjectKey(MessageDigest digest, SubjectAttendance subject, Map<String, Integer> occurrences) {
+        String name = "subject:" + subject.getSubject();
+        int occurrence = occurrences.merge(name, 1, Integer::sum);
+        return digest64(digest, name, String.valueOf(occurrence));
+    }
+
+    private static long subjectDigest(MessageDigest digest, SubjectAttendance subject) {
+        // Every computed column derives from held and attended
+        return digest64(digest, subject.getSubject(), subject.getSubjectCode(), subject.getFaculty(),
+            String.valueOf(subject.getHeld()), String.valueOf(subject.getAttended()));
+    }
+
+    // One digest over a run of rows; the period count keeps row boundaries unambiguous
+    private static long rowsDigest(MessageDigest digest, List<DatewiseAttendanceEntry> rows) {
+        digest.reset();
+        for (DatewiseAttendanceEntry row : rows) {
+            List<String> periods = row.getPeriods();
+            update(digest, row.getDate(), String.valueOf(periods.size()));
+            update(digest, periods.toArray(new String[0]));
+        }
+        return ByteBuffer.wrap(digest.digest()).getLong();
+    }
+
+    // First 64 bits of SHA-256 over length-prefixed parts
+    private static long digest64(MessageDigest digest, String... parts) {
+        digest.reset();
+        update(digest, parts);
+        return ByteBuffer.wrap(digest.digest()).getLong();
+    }
+
+    // Length-prefixed, so ("ab", "c") and ("a", "bc") differ
+    private static void update(MessageDigest digest, String... parts) {
+        ByteBuffer length = ByteBuffer.allocate(4);
+        for (String part : parts) {
+            byte[] bytes = (part != null ? part : "").getBytes(StandardCharsets.UTF_8);
+            length.clear();
+            digest.update(length.putInt(bytes.length).array());
+            digest.update(bytes);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
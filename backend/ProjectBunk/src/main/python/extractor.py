@@ -2,12 +2,33 @@ import sys
 import requests
 from bs4 import BeautifulSoup
 import json
+import os
+import time
 from datetime import datetime
 
 roll_no = sys.argv[1]
 password = sys.argv[2]
 mode = sys.argv[3] if len(sys.argv) > 3 else "attendance"
 
+# Absolute deadline from the backend (epoch ms), set just before its own kill so we can fail cleanly first
+deadline_ms = int(os.environ.get("EXTRACTOR_DEADLINE_EPOCH_MS", "0") or "0")
+deadline = deadline_ms / 1000.0 if deadline_ms > 0 else None
+
+# Exit code the backend maps to 504, kept apart from ordinary failures (exit 1)
+DEADLINE_EXIT_CODE = 124
+
+def remaining():
+    if deadline is None:
+        return None
+    left = deadline - time.time()
+    if left <= 0:
+        raise TimeoutError("Extractor deadline exceeded")
+    return left
+
+def emit(section, data):
+    # One JSON object per line, flushed, so the backend keeps finished sections if we get cut off
+    print(json.dumps({section: data}), flush=True)
+
 def extract_asp_fields(soup):
     return {
         "__VIEWSTATE": soup.find("input", {"name": "__VIEWSTATE"})["value"],
@@ -86,7 +107,7 @@ try:
     # Initialize session
     session = requests.Session()
     login_url = "https://erp.cbit.org.in/Login.aspx"
-    res = session.get(login_url)
+    res = session.get(login_url, timeout=remaining())
     soup = BeautifulSoup(res.text, "html.parser")
 
     # Submit username
@@ -96,7 +117,7 @@ try:
         "txtUserName": roll_no,
         "btnNext": "Next"
     }
-    res_username = session.post(login_url, data=payload_username)
+    res_username = session.post(login_url, data=payload_username, timeout=remaining())
 
     if "txtPassword" not in res_username.text:
         print(json.dumps({"error": "Username step failed"}))
@@ -110,11 +131,11 @@ try:
         "txtPassword": password,
         "btnLogin": "Login"
     }
-    res_login = session.post(login_url, data=payload_password)
+    res_login = session.post(login_url, data=payload_password, timeout=remaining())
 
     # Go to dashboard
     dashboard_url = "https://erp.cbit.org.in/StudentLogin/StudLoginDashboard.aspx"
-    dashboard_res = session.get(dashboard_url)
+    dashboard_res = session.get(dashboard_url, timeout=remaining())
 
     if "StudLoginDashboard" not in dashboard_res.url:
         print(json.dumps({"error": "Failed to load dashboard", "redirected_to": dashboard_res.url}))
@@ -129,18 +150,15 @@ try:
         "__EVENTTARGET": "ctl00$cpStud$lnkStudentMain",
         "__EVENTARGUMENT": ""
     }
-    res_postback = session.post(dashboard_url, data=postback_payload)
+    res_postback = session.post(dashboard_url, data=postback_payload, timeout=remaining())
 
     soup_dashboard_final = BeautifulSoup(res_postback.text, "html.parser")
 
     if mode == "timetable":
-        timetable = extract_todays_timetable(soup_dashboard_final)
-        datewise_attendance = extract_datewise_attendance(soup_dashboard_final)
-        print(json.dumps({
-            "attendance": [], 
-            "today_timetable": timetable,
-            "datewise_attendance": datewise_attendance
-        }))
+        emit("attendance", [])
+        emit("today_timetable", extract_todays_timetable(soup_dashboard_final))
+        remaining()
+        emit("datewise_attendance", extract_datewise_attendance(soup_dashboard_final))
         sys.exit(0)
 
     # Extract attendance table (default)
@@ -164,17 +182,19 @@ try:
             "percentage": cols[5].get_text(strip=True)
         }
         attendance_list.append(data)
+    emit("attendance", attendance_list)
+
     # Also extract timetable for today
-    timetable = extract_todays_timetable(soup_dashboard_final)
-    
+    remaining()
+    emit("today_timetable", extract_todays_timetable(soup_dashboard_final))
+
     # Extract datewise attendance
-    datewise_attendance = extract_datewise_attendance(soup_dashboard_final)
-    
-    print(json.dumps({
-        "attendance": attendance_list, 
-        "today_timetable": timetable,
-        "datewise_attendance": datewise_attendance
-    }))
+    remaining()
+    emit("datewise_attendance", extract_datewise_attendance(soup_dashboard_final))
+
+except (TimeoutError, requests.exceptions.Timeout) as e:
+    print(json.dumps({"error": str(e) or "Extractor deadline exceeded", "timeout": True}))
+    sys.exit(DEADLINE_EXIT_CODE)
 
 except Exception as e:
     print(json.dumps({"error": str(e)}))
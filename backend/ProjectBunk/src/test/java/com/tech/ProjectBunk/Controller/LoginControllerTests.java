@@ -0,0 +1,117 @@
+package com.tech.ProjectBunk.Controller;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.jayway.jsonpath.JsonPath;
+
+// The stub extractor picks its hang phase from the roll number
+@SpringBootTest(properties = {
+	"extractor.script=src/test/resources/stub_extractor.py",
+	"extractor.deadline-ms=1500"
+})
+@AutoConfigureMockMvc
+class LoginControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void timeoutWithoutAllowPartialIsGatewayTimeout() throws Exception {
+		mockMvc.perform(post("/submit").param("rollno", "attendance").param("password", "secret"))
+			.andExpect(status().isGatewayTimeout());
+	}
+
+	@Test
+	void timeoutWithAllowPartialReturnsFlaggedSections() throws Exception {
+		mockMvc.perform(post("/submit").param("rollno", "attendance").param("password", "secret")
+				.param("allowPartial", "true"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.partial").value(true))
+			.andExpect(jsonPath("$.missingSections[0]").value("todayTimetable"))
+			.andExpect(jsonPath("$.missingSections[1]").value("datewiseAttendance"))
+			.andExpect(jsonPath("$.attendance[0].subject").value("22CSC01 DBMS"))
+			.andExpect(jsonPath("$.attendance[0].bunk75").value(2))
+			.andExpect(jsonPath("$.datewiseAttendance").isEmpty());
+	}
+
+	@Test
+	void timeoutBeforeAttendanceIsGatewayTimeoutEvenWithAllowPartial() throws Exception {
+		mockMvc.perform(post("/submit").param("rollno", "login").param("password", "secret")
+				.param("allowPartial", "true"))
+			.andExpect(status().isGatewayTimeout());
+	}
+
+	@Test
+	void extractorsOwnDeadlineIsGatewayTimeout() throws Exception {
+		mockMvc.perform(post("/submit").param("rollno", "graceful").param("password", "secret"))
+			.andExpect(status().isGatewayTimeout());
+	}
+
+	@Test
+	void extractorsOwnDeadlineWithAllowPartialReturnsFlaggedSections() throws Exception {
+		mockMvc.perform(post("/submit").param("rollno", "graceful").param("password", "secret")
+				.param("allowPartial", "true"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.partial").value(true))
+			.andExpect(jsonPath("$.attendance[0].subject").value("22CSC01 DBMS"));
+	}
+
+	@Test
+	void extractorFailureIsReportedInTheBody() throws Exception {
+		mockMvc.perform(post("/submit").param("rollno", "broken").param("password", "secret"))
+			.andExpect(status().isInternalServerError())
+			.andExpect(content().string(containsString("Couldn't find the attendance table")));
+	}
+
+	@Test
+	void cleanExitWithoutOutputIsBadRequest() throws Exception {
+		mockMvc.perform(post("/submit").param("rollno", "silent").param("password", "secret"))
+			.andExpect(status().isBadRequest())
+			.andExpect(content().string("No output from Python script."));
+	}
+
+	@Test
+	void completeRunIsNotPartial() throws Exception {
+		mockMvc.perform(post("/submit").param("rollno", "complete").param("password", "secret"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.partial").value(false))
+			.andExpect(jsonPath("$.missingSections").isEmpty())
+			.andExpect(jsonPath("$.todayTimetable[0].period").value("1"));
+	}
+
+	@Test
+	void invalidFieldsAreRejectedBeforeScraping() throws Exception {
+		// "login" would hang until the deadline if the extractor were started
+		mockMvc.perform(post("/submit").param("rollno", "login").param("password", "secret")
+				.param("fields", "attendance.bunk50"))
+			.andExpect(status().isBadRequest())
+			.andExpect(content().string("Unknown attendance field: bunk50"));
+	}
+
+	@Test
+	void projectedDeltaStillCarriesTheVersion() throws Exception {
+		String body = mockMvc.perform(post("/submit").param("rollno", "complete").param("password", "secret")
+				.param("fields", "version"))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getContentAsString();
+		String version = JsonPath.read(body, "$.version");
+
+		mockMvc.perform(post("/submit").param("rollno", "complete").param("password", "secret")
+				.param("fields", "attendance.bunk75").param("since", version))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.delta").value(true))
+			.andExpect(jsonPath("$.version").value(version))
+			.andExpect(jsonPath("$.attendance").isEmpty())
+			.andExpect(jsonPath("$.todayTimetable").doesNotExist());
+	}
+}
@@ -0,0 +1,76 @@
+package com.tech.ProjectBunk.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.tech.ProjectBunk.Model.SubjectAttendance;
+
+// Run with: mvn test -Pbenchmark
+@Tag("benchmark")
+class CohortAggregateBenchmarkTests {
+
+	private static SubjectAttendance subject(String name, String faculty, int held, int attended) {
+		SubjectAttendance s = new SubjectAttendance();
+		s.setSubject(name);
+		s.setFaculty(faculty);
+		s.setHeld(String.valueOf(held));
+		s.setAttended(String.valueOf(attended));
+		return s;
+	}
+
+	@Test
+	void updateThroughputWithManyWriters() throws Exception {
+		CohortAggregateService service = new CohortAggregateService();
+		int threads = 16;
+		int studentsPerThread = 2_000;
+		int scrapesPerStudent = 10;
+		List<SubjectAttendance> scrape = List.of(
+				subject("OS", "Dr. C", 40, 30),
+				subject("OS Lab", "Dr. C", 20, 18),
+				subject("CN", "Dr. D", 40, 35));
+
+		// Hashing happens once per login in production, so it stays out of the timed loop
+		String[][] students = new String[threads][studentsPerThread];
+		for (int t = 0; t < threads; t++) {
+			for (int s = 0; s < studentsPerThread; s++) {
+				students[t][s] = service.hashStudent("roll-" + t + "-" + s);
+			}
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		for (int t = 0; t < threads; t++) {
+			String[] mine = students[t];
+			pool.submit(() -> {
+				start.await();
+				for (String student : mine) {
+					for (int r = 0; r < scrapesPerStudent; r++) {
+						service.record(student, scrape);
+					}
+				}
+				return null;
+			});
+		}
+
+		long begin = System.nanoTime();
+		start.countDown();
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(120, TimeUnit.SECONDS));
+		long elapsed = System.nanoTime() - begin;
+
+		long scrapes = (long) threads * studentsPerThread * scrapesPerStudent;
+		System.out.println("[BENCH] " + threads + " writers, " + scrapes + " scrapes in " + (elapsed / 1_000_000) + " ms ("
+				+ (scrapes * 1_000_000_000L / Math.max(1, elapsed)) + " scrapes/s)");
+
+		assertEquals(3, service.getSubjectSummaries().size());
+	}
+}
@@ -0,0 +1,193 @@
+package com.tech.ProjectBunk.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.tech.ProjectBunk.Model.SubjectAttendance;
+
+class CohortAggregateServiceTests {
+
+	private static SubjectAttendance subject(String name, String faculty, int held, int attended) {
+		SubjectAttendance s = new SubjectAttendance();
+		s.setSubject(name);
+		s.setFaculty(faculty);
+		s.setHeld(String.valueOf(held));
+		s.setAttended(String.valueOf(attended));
+		return s;
+	}
+
+	@Test
+	void aggregatesMeanPercentilesAndShareBelowRequired() {
+		CohortAggregateService service = new CohortAggregateService();
+		int[] attended = {60, 70, 80, 85, 90};
+		for (int i = 0; i < attended.length; i++) {
+			service.record(service.hashStudent("1601220000" + i), List.of(subject("DBMS", "Dr. A", 100, attended[i])));
+		}
+		service.record(service.hashStudent("16012200009"), List.of(subject("DBMS", "Dr. A", 0, 0)));
+
+		List<CohortAggregateService.CohortSummaryDTO> subjects = service.getSubjectSummaries();
+		assertEquals(1, subjects.size());
+		CohortAggregateService.CohortSummaryDTO dbms = subjects.get(0);
+		assertEquals(5, dbms.getSamples());
+		assertEquals(77.0, dbms.getMeanPercentage(), 0.001);
+		assertEquals(0.4, dbms.getBelowRequiredShare(), 0.001);
+		assertEquals(80.0, dbms.getMedian(), 0.001);
+		assertEquals(90.0, dbms.getP90(), 0.001);
+	}
+
+	@Test
+	void rescrapeReplacesTheStudentsEarlierContribution() {
+		CohortAggregateService service = new CohortAggregateService();
+		for (int i = 0; i < 4; i++) {
+			service.record(service.hashStudent("1601220000" + i), List.of(subject("DBMS", "Dr. A", 100, 80)));
+		}
+		String refresher = service.hashStudent("16012200009");
+		for (int i = 0; i < 50; i++) {
+			service.record(refresher, List.of(subject("DBMS", "Dr. A", 100, 50)));
+		}
+		service.record(refresher, List.of(subject("DBMS", "Dr. A", 100, 55)));
+
+		CohortAggregateService.CohortSummaryDTO dbms = service.getSubjectSummaries().get(0);
+		assertEquals(5, dbms.getSamples());
+		assertEquals(75.0, dbms.getMeanPercentage(), 0.001);
+		assertEquals(0.2, dbms.getBelowRequiredShare(), 0.001);
+		assertEquals(80.0, dbms.getMedian(), 0.001);
+	}
+
+	@Test
+	void bucketsBelowMinimumSamplesAreSuppressed() {
+		CohortAggregateService service = new CohortAggregateService();
+		for (int i = 0; i < CohortAggregateService.MIN_SAMPLES - 1; i++) {
+			service.record(service.hashStudent("1601220000" + i), List.of(subject("DBMS", "Dr. Solo", 100, 70 + i)));
+		}
+		assertTrue(service.getSubjectSummaries().isEmpty());
+		assertTrue(service.getFacultySummaries().isEmpty());
+
+		// The same student refreshing must not push a bucket over the threshold
+		String refresher = service.hashStudent("16012200000");
+		service.record(refresher, List.of(subject("DBMS", "Dr. Solo", 100, 71)));
+		assertTrue(service.getSubjectSummaries().isEmpty());
+
+		service.record(service.hashStudent("16012200009"), List.of(subject("DBMS", "Dr. Solo", 100, 90)));
+		assertEquals(1, service.getSubjectSummaries().size());
+		assertEquals(1, service.getFacultySummaries().size());
+	}
+
+	@Test
+	void studentHashIsSaltedPerInstance() {
+		CohortAggregateService a = new CohortAggregateService();
+		CohortAggregateService b = new CohortAggregateService();
+		assertEquals(a.hashStudent("16012200001"), a.hashStudent(" 16012200001 "));
+		assertNotEquals(a.hashStudent("16012200001"), b.hashStudent("16012200001"));
+	}
+
+	@Test
+	void mergedSketchesMatchSingleSketch() {
+		CohortAggregateService.CohortStats a = new CohortAggregateService.CohortStats();
+		CohortAggregateService.CohortStats b = new CohortAggregateService.CohortStats();
+		a.add(5000);
+		a.add(7000);
+		b.add(9500);
+		a.merge(b);
+
+		CohortAggregateService.CohortSummaryDTO merged = a.snapshot("x");
+		assertEquals(3, merged.getSamples());
+		assertEquals(70.0, merged.getMedian(), 0.001);
+	}
+
+	@Test
+	void facultyGetsOneContributionAcrossTheirSubjects() {
+		CohortAggregateService service = new CohortAggregateService();
+		for (int i = 0; i < CohortAggregateService.MIN_SAMPLES; i++) {
+			// Theory 30/40 and lab 20/20 under the same faculty: 50/60 overall, whatever the table order
+			List<SubjectAttendance> scrape = new ArrayList<>();
+			scrape.add(subject("22CSC01 DBMS", "Dr. A", 40, 30));
+			scrape.add(subject("22CSC02 DBMS Lab", "Dr. A", 20, 20));
+			if (i % 2 == 1) {
+				Collections.reverse(scrape);
+			}
+			service.record(service.hashStudent("1601220000" + i), scrape);
+		}
+
+		List<CohortAggregateService.CohortSummaryDTO> faculty = service.getFacultySummaries();
+		assertEquals(1, faculty.size());
+		assertEquals(CohortAggregateService.MIN_SAMPLES, faculty.get(0).getSamples());
+		assertEquals(83.33, faculty.get(0).getMeanPercentage(), 0.001);
+		assertEquals(0.0, faculty.get(0).getBelowRequiredShare(), 0.001);
+
+		assertEquals(2, service.getSubjectSummaries().size());
+	}
+
+	@Test
+	void staleContributionsExpire() {
+		CohortAggregateService service = new CohortAggregateService();
+		for (int i = 0; i < CohortAggregateService.MIN_SAMPLES; i++) {
+			service.record(service.hashStudent("1601220000" + i), List.of(subject("DBMS", "Dr. A", 100, 80)));
+		}
+		service.expireOlderThan(System.currentTimeMillis() - 60_000);
+		assertEquals(1, service.getSubjectSummaries().size());
+
+		service.expireOlderThan(System.currentTimeMillis() + 1);
+		assertTrue(service.getSubjectSummaries().isEmpty());
+		assertTrue(service.getFacultySummaries().isEmpty());
+
+		// Students scraped again after expiry count once, not on top of their retracted values
+		for (int i = 0; i < CohortAggregateService.MIN_SAMPLES; i++) {
+			service.record(service.hashStudent("1601220000" + i), List.of(subject("DBMS", "Dr. A", 100, 60)));
+		}
+		CohortAggregateService.CohortSummaryDTO dbms = service.getSubjectSummaries().get(0);
+		assertEquals(CohortAggregateService.MIN_SAMPLES, dbms.getSamples());
+		assertEquals(60.0, dbms.getMeanPercentage(), 0.001);
+	}
+
+	@Test
+	void concurrentWritersDoNotLoseUpdates() throws Exception {
+		CohortAggregateService service = new CohortAggregateService();
+		int threads = 8;
+		int studentsPerThread = 50;
+		int scrapesPerStudent = 5;
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		for (int t = 0; t < threads; t++) {
+			int thread = t;
+			pool.submit(() -> {
+				start.await();
+				for (int s = 0; s < studentsPerThread; s++) {
+					String student = service.hashStudent("roll-" + thread + "-" + s);
+					for (int r = 0; r < scrapesPerStudent; r++) {
+						List<SubjectAttendance> scrape = new ArrayList<>();
+						scrape.add(subject("OS", "Dr. C", 40, 30 + r));
+						scrape.add(subject("CN", "Dr. D", 40, 35));
+						service.record(student, scrape);
+					}
+				}
+				return null;
+			});
+		}
+
+		start.countDown();
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+		List<CohortAggregateService.CohortSummaryDTO> summaries = service.getSubjectSummaries();
+		assertEquals(2, summaries.size());
+		for (CohortAggregateService.CohortSummaryDTO summary : summaries) {
+			// One sample per student, however often each of them was scraped
+			assertEquals((long) threads * studentsPerThread, summary.getSamples());
+			// Earlier scrapes were fully retracted: only each student's last one (OS 34/40, CN 35/40) remains
+			assertEquals(summary.getKey().equals("OS") ? 85.0 : 87.5, summary.getMeanPercentage(), 0.001);
+		}
+	}
+}
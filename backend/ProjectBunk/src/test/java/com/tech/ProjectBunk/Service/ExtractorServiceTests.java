@@ -0,0 +1,146 @@
+package com.tech.ProjectBunk.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+class ExtractorServiceTests {
+
+	private static final long BUDGET_MS = 1500;
+
+	// Teardown has to finish well inside this, or the deadline is not really enforced
+	private static final long SLACK_MS = 1500;
+
+	private final ExtractorService extractorService =
+			new ExtractorService("python3", "src/test/resources/stub_extractor.py", BUDGET_MS);
+
+	private ExtractorService.ExtractionResult runPhase(String phase) throws Exception {
+		long start = System.currentTimeMillis();
+		ExtractorService.ExtractionResult result = extractorService.extract(phase, "secret", BUDGET_MS);
+		long elapsed = System.currentTimeMillis() - start;
+		assertTrue(elapsed < BUDGET_MS + SLACK_MS, "extract took " + elapsed + " ms");
+		return result;
+	}
+
+	@Test
+	void hangBeforeAnyOutputTimesOutWithNothing() throws Exception {
+		ExtractorService.ExtractionResult result = runPhase("login");
+		assertTrue(result.isTimedOut());
+		assertTrue(result.getSections().isEmpty());
+		assertEquals(List.of("attendance", "todayTimetable", "datewiseAttendance"), result.getMissingSections());
+	}
+
+	@Test
+	void hangAfterAttendanceKeepsAttendance() throws Exception {
+		ExtractorService.ExtractionResult result = runPhase("attendance");
+		assertTrue(result.isTimedOut());
+		assertTrue(result.hasSection("attendance"));
+		assertFalse(result.isComplete());
+		assertEquals(List.of("todayTimetable", "datewiseAttendance"), result.getMissingSections());
+
+		AttendanceService.AttendanceAndTimetableDTO dto = new AttendanceService().parseAttendanceAndTimetable(result.getSections());
+		assertEquals(1, dto.getAttendance().size());
+		assertEquals(80.0, dto.getAttendance().get(0).getPercentage(), 0.001);
+		assertTrue(dto.getDatewiseAttendance().isEmpty());
+	}
+
+	@Test
+	void hangAfterTimetableMissesOnlyDatewise() throws Exception {
+		ExtractorService.ExtractionResult result = runPhase("timetable");
+		assertTrue(result.isTimedOut());
+		assertEquals(List.of("datewiseAttendance"), result.getMissingSections());
+	}
+
+	@Test
+	void completeRunGetsEverySectionAndTheDeadline() throws Exception {
+		long before = System.currentTimeMillis();
+		ExtractorService.ExtractionResult result = runPhase("complete");
+		assertFalse(result.isTimedOut());
+		assertTrue(result.isComplete());
+		assertTrue(result.getMissingSections().isEmpty());
+		assertNull(result.getError());
+
+		// Absolute and ahead of our own deadline, leaving room for the extractor to fail cleanly
+		long extractorDeadline = Long.parseLong((String) result.getSections().get("deadline_epoch_ms"));
+		assertTrue(extractorDeadline >= before + BUDGET_MS / 2);
+		assertTrue(extractorDeadline < before + BUDGET_MS);
+	}
+
+	@Test
+	void extractorReportsItsOwnDeadlineBeforeBeingKilled() throws Exception {
+		ExtractorService.ExtractionResult result = runPhase("graceful");
+		assertFalse(result.isTimedOut());
+		assertTrue(result.isDeadlineExceeded());
+		assertEquals(ExtractorService.DEADLINE_EXIT_CODE, result.getExitCode());
+		assertFalse(result.isComplete());
+		assertTrue(result.hasSection("attendance"));
+		assertEquals("Extractor deadline exceeded", result.getError());
+	}
+
+	@Test
+	void ordinaryFailureIsNotADeadline() throws Exception {
+		ExtractorService.ExtractionResult result = runPhase("broken");
+		assertFalse(result.isDeadlineExceeded());
+		assertEquals(1, result.getExitCode());
+		assertEquals("Couldn't find the attendance table", result.getError());
+	}
+
+	@Test
+	void interruptedCallerStillKillsTheProcess() throws Exception {
+		ExtractorService patient = new ExtractorService("python3", "src/test/resources/stub_extractor.py", 30_000);
+		AtomicReference<Throwable> thrown = new AtomicReference<>();
+		AtomicBoolean stillInterrupted = new AtomicBoolean();
+
+		Thread caller = new Thread(() -> {
+			try {
+				patient.extract("login", "secret", 30_000);
+			} catch (Throwable t) {
+				thrown.set(t);
+				stillInterrupted.set(Thread.currentThread().isInterrupted());
+			}
+		});
+		caller.start();
+
+		ProcessHandle stub = null;
+		long waitUntil = System.currentTimeMillis() + 5_000;
+		while (stub == null && System.currentTimeMillis() < waitUntil) {
+			stub = ProcessHandle.current().children()
+				.filter(p -> p.info().commandLine().orElse("").contains("stub_extractor.py"))
+				.findFirst().orElse(null);
+			Thread.sleep(20);
+		}
+		assertNotNull(stub, "stub extractor never started");
+
+		caller.interrupt();
+		caller.join(2_000);
+		assertFalse(caller.isAlive());
+		assertTrue(thrown.get() instanceof InterruptedException);
+		assertTrue(stillInterrupted.get());
+
+		stub.onExit().get(2, TimeUnit.SECONDS);
+		assertFalse(stub.isAlive());
+	}
+
+	@Test
+	void nonJsonOutputIsSkipped() throws Exception {
+		ExtractorService.ExtractionResult result = runPhase("noisy");
+		assertTrue(result.isComplete());
+		assertTrue(result.getMissingSections().isEmpty());
+	}
+
+	@Test
+	void requestedBudgetIsClampedToConfigured() {
+		assertEquals(BUDGET_MS, extractorService.resolveBudgetMs(null));
+		assertEquals(BUDGET_MS, extractorService.resolveBudgetMs(60_000L));
+		assertEquals(500, extractorService.resolveBudgetMs(500L));
+	}
+}
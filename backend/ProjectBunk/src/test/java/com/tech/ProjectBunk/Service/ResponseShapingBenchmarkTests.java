@@ -0,0 +1,59 @@
+package com.tech.ProjectBunk.Service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Run with: mvn test -Pbenchmark
+@Tag("benchmark")
+class ResponseShapingBenchmarkTests {
+
+	@Test
+	void payloadSizeAndSerializationTime() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		ResponseShapingService responseShapingService = new ResponseShapingService();
+		ResponseShapingService.FieldSelection mobile = responseShapingService.parseFields(ResponseShapingServiceTests.MOBILE_FIELDS);
+
+		AttendanceService.AttendanceAndTimetableDTO full = ResponseShapingServiceTests.semester(0, 90);
+		String since = responseShapingService.computeVersion(full);
+		AttendanceService.AttendanceAndTimetableDTO next = ResponseShapingServiceTests.semester(1, 91);
+		next.setVersion(responseShapingService.computeVersion(next));
+		AttendanceService.AttendanceAndTimetableDTO delta = responseShapingService.delta(next, since);
+		int iterations = 2_000;
+
+		// Warm up both paths before timing them
+		for (int i = 0; i < iterations; i++) {
+			mapper.writeValueAsBytes(full);
+			responseShapingService.project(full, mobile);
+		}
+
+		long start = System.nanoTime();
+		int fullBytes = 0;
+		for (int i = 0; i < iterations; i++) {
+			fullBytes = mapper.writeValueAsBytes(full).length;
+		}
+		long fullNanos = (System.nanoTime() - start) / iterations;
+
+		start = System.nanoTime();
+		int projectedBytes = 0;
+		for (int i = 0; i < iterations; i++) {
+			projectedBytes = responseShapingService.project(full, mobile).getBytes().length;
+		}
+		long projectedNanos = (System.nanoTime() - start) / iterations;
+
+		int deltaBytes = mapper.writeValueAsBytes(delta).length;
+		int projectedDeltaBytes = responseShapingService.project(delta, mobile.withVersion()).getBytes().length;
+
+		System.out.println("[BENCH] full: " + fullBytes + " bytes, " + fullNanos / 1000 + " us");
+		System.out.println("[BENCH] projected (" + ResponseShapingServiceTests.MOBILE_FIELDS + "): " + projectedBytes + " bytes, "
+				+ projectedNanos / 1000 + " us");
+		System.out.println("[BENCH] delta (1 subject changed, 1 day added, with new version): " + deltaBytes + " bytes down, "
+				+ since.length() + " bytes up (since)");
+		System.out.println("[BENCH] projected delta: " + projectedDeltaBytes + " bytes down, " + since.length() + " bytes up (since)");
+		System.out.println("[BENCH] since after 10 / 90 / 180 days: "
+				+ responseShapingService.computeVersion(ResponseShapingServiceTests.semester(0, 10)).length() + " / "
+				+ since.length() + " / "
+				+ responseShapingService.computeVersion(ResponseShapingServiceTests.semester(0, 180)).length() + " bytes");
+	}
+}
@@ -0,0 +1,218 @@
+package com.tech.ProjectBunk.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tech.ProjectBunk.Model.DatewiseAttendanceEntry;
+import com.tech.ProjectBunk.Model.SubjectAttendance;
+import com.tech.ProjectBunk.Model.TodayTimetableEntry;
+
+class ResponseShapingServiceTests {
+
+	static final String MOBILE_FIELDS = "attendance.subject,attendance.percentage,attendance.bunk75,attendance.attend75,todayTimetable";
+
+	private final ObjectMapper mapper = new ObjectMapper();
+	private final ResponseShapingService responseShapingService = new ResponseShapingService();
+
+	// Roughly one semester for one student: 9 subjects, 6 periods today, one datewise row per day so far
+	static AttendanceService.AttendanceAndTimetableDTO semester(int extraAttendedInFirstSubject, int days) {
+		List<SubjectAttendance> attendance = new ArrayList<>();
+		for (int i = 0; i < 9; i++) {
+			SubjectAttendance s = new SubjectAttendance();
+			s.setSubject("22CSC0" + i + " Subject " + i);
+			s.setFaculty("Dr. Faculty " + i);
+			s.setHeld("60");
+			s.setAttended(String.valueOf(40 + i + (i == 0 ? extraAttendedInFirstSubject : 0)));
+			attendance.add(s);
+		}
+		new AttendanceService().calculateAllThresholds(attendance);
+
+		List<TodayTimetableEntry> timetable = new ArrayList<>();
+		for (int p = 1; p <= 6; p++) {
+			TodayTimetableEntry entry = new TodayTimetableEntry();
+			entry.setPeriod(String.valueOf(p));
+			entry.setSubject("Subject " + p);
+			timetable.add(entry);
+		}
+
+		List<DatewiseAttendanceEntry> datewise = new ArrayList<>();
+		for (int d = 0; d < days; d++) {
+			datewise.add(new DatewiseAttendanceEntry(String.format("%02d-%02d-2025", 1 + d % 28, 1 + d / 28),
+					new ArrayList<>(List.of("P", "P", "A", "P", "-", d % 7 == 0 ? "A" : "P"))));
+		}
+
+		return new AttendanceService.AttendanceAndTimetableDTO(attendance, timetable, datewise);
+	}
+
+	private AttendanceService.AttendanceAndTimetableDTO versioned(AttendanceService.AttendanceAndTimetableDTO dto) {
+		dto.setVersion(responseShapingService.computeVersion(dto));
+		return dto;
+	}
+
+	private static AttendanceService.AttendanceAndTimetableDTO newestFirst(AttendanceService.AttendanceAndTimetableDTO dto) {
+		Collections.reverse(dto.getDatewiseAttendance());
+		return dto;
+	}
+
+	@Test
+	void projectionKeepsOnlyRequestedProperties() throws Exception {
+		JsonNode node = mapper.readTree(responseShapingService.project(semester(0, 90),
+				responseShapingService.parseFields(MOBILE_FIELDS)));
+
+		assertTrue(node.has("attendance"));
+		assertTrue(node.has("todayTimetable"));
+		assertFalse(node.has("version"));
+		assertFalse(node.has("datewiseAttendance"));
+
+		JsonNode subject = node.get("attendance").get(0);
+		assertEquals(4, subject.size());
+		assertTrue(subject.has("bunk75"));
+		assertFalse(subject.has("bunk90"));
+		assertFalse(subject.has("faculty"));
+	}
+
+	@Test
+	void versionIsOnlySentWhenAskedFor() throws Exception {
+		assertFalse(responseShapingService.parseFields(MOBILE_FIELDS).includesVersion());
+		assertTrue(responseShapingService.parseFields(MOBILE_FIELDS + ",version").includesVersion());
+
+		assertFalse(mapper.readTree(mapper.writeValueAsString(semester(0, 90))).has("version"));
+
+		JsonNode node = mapper.readTree(responseShapingService.project(versioned(semester(0, 90)),
+				responseShapingService.parseFields("attendance.bunk75,version")));
+		assertTrue(node.get("version").asText().startsWith(ResponseShapingService.VERSION_PREFIX));
+	}
+
+	@Test
+	void projectedDeltaStillCarriesTheNextVersion() throws Exception {
+		String clientVersion = versioned(semester(0, 90)).getVersion();
+		AttendanceService.AttendanceAndTimetableDTO delta = responseShapingService.delta(versioned(semester(1, 91)), clientVersion);
+
+		// What the controller does when since= comes with a fields= that leaves version out
+		JsonNode node = mapper.readTree(responseShapingService.project(delta,
+				responseShapingService.parseFields("attendance.bunk75").withVersion()));
+		assertTrue(node.get("delta").asBoolean());
+		assertNotEquals(clientVersion, node.get("version").asText());
+		assertEquals(1, node.get("attendance").size());
+	}
+
+	@Test
+	void unknownFieldIsRejected() {
+		assertThrows(IllegalArgumentException.class, () -> responseShapingService.parseFields("attendance.bunk50"));
+		assertThrows(IllegalArgumentException.class, () -> responseShapingService.parseFields("grades"));
+	}
+
+	@Test
+	void deltaCarriesOnlyChangedSubjectsAndNewDays() {
+		String clientVersion = versioned(semester(0, 90)).getVersion();
+
+		// The client's newest day is always resent, since today's periods fill in during the day
+		AttendanceService.AttendanceAndTimetableDTO unchanged = responseShapingService.delta(versioned(semester(0, 90)), clientVersion);
+		assertTrue(unchanged.isDelta());
+		assertTrue(unchanged.getAttendance().isEmpty());
+		assertEquals(1, unchanged.getDatewiseAttendance().size());
+
+		AttendanceService.AttendanceAndTimetableDTO changed = responseShapingService.delta(versioned(semester(1, 92)), clientVersion);
+		assertTrue(changed.isDelta());
+		assertEquals(1, changed.getAttendance().size());
+		assertEquals("22CSC00 Subject 0", changed.getAttendance().get(0).getSubject());
+		assertEquals(3, changed.getDatewiseAttendance().size());
+		assertNotEquals(clientVersion, changed.getVersion());
+	}
+
+	@Test
+	void newestFirstHistoryIsHandledToo() {
+		String clientVersion = versioned(newestFirst(semester(0, 90))).getVersion();
+
+		AttendanceService.AttendanceAndTimetableDTO today = newestFirst(semester(0, 90));
+		today.getDatewiseAttendance().get(0).getPeriods().set(5, "A");
+		AttendanceService.AttendanceAndTimetableDTO delta = responseShapingService.delta(versioned(today), clientVersion);
+		assertTrue(delta.isDelta());
+		assertEquals(1, delta.getDatewiseAttendance().size());
+
+		AttendanceService.AttendanceAndTimetableDTO later = responseShapingService.delta(versioned(newestFirst(semester(0, 92))), clientVersion);
+		assertTrue(later.isDelta());
+		assertEquals(3, later.getDatewiseAttendance().size());
+		assertEquals(later.getDatewiseAttendance().get(0).getDate(), semester(0, 92).getDatewiseAttendance().get(91).getDate());
+	}
+
+	@Test
+	void rewrittenHistoryFallsBackToFullResponse() {
+		String clientVersion = versioned(semester(0, 90)).getVersion();
+
+		// An old day corrected after the fact, e.g. a period marked present on review
+		AttendanceService.AttendanceAndTimetableDTO corrected = semester(0, 91);
+		corrected.getDatewiseAttendance().get(10).getPeriods().set(2, "P");
+		AttendanceService.AttendanceAndTimetableDTO response = responseShapingService.delta(versioned(corrected), clientVersion);
+		assertFalse(response.isDelta());
+		assertEquals(91, response.getDatewiseAttendance().size());
+	}
+
+	@Test
+	void unusableVersionFallsBackToFullResponse() {
+		AttendanceService.AttendanceAndTimetableDTO garbage = responseShapingService.delta(semester(0, 90), "not-a-version");
+		assertFalse(garbage.isDelta());
+		assertEquals(9, garbage.getAttendance().size());
+
+		AttendanceService.AttendanceAndTimetableDTO partial = versioned(semester(0, 90));
+		partial.setPartial(true);
+		assertFalse(responseShapingService.delta(partial, partial.getVersion()).isDelta());
+
+		// Client knows a day the server no longer reports
+		String clientVersion = versioned(semester(0, 90)).getVersion();
+		assertFalse(responseShapingService.delta(versioned(semester(0, 89)), clientVersion).isDelta());
+	}
+
+	@Test
+	void tokenWithDuplicateKeysIsRejected() {
+		String version = versioned(semester(0, 90)).getVersion();
+		ByteBuffer original = ByteBuffer.wrap(Base64.getUrlDecoder().decode(version.substring(ResponseShapingService.VERSION_PREFIX.length())));
+		int subjects = original.getInt();
+		long firstKey = original.getLong();
+
+		// Repeat the first subject's key with a different content digest
+		byte[] bytes = original.array();
+		ByteBuffer forged = ByteBuffer.allocate(bytes.length + 16);
+		forged.putInt(subjects + 1);
+		forged.put(bytes, 4, subjects * 16);
+		forged.putLong(firstKey);
+		forged.putLong(0L);
+		forged.put(bytes, 4 + subjects * 16, bytes.length - 4 - subjects * 16);
+		String token = ResponseShapingService.VERSION_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(forged.array());
+
+		assertFalse(responseShapingService.delta(versioned(semester(0, 90)), token).isDelta());
+	}
+
+	@Test
+	void versionSizeDoesNotGrowWithHistory() {
+		assertEquals(responseShapingService.computeVersion(semester(0, 10)).length(),
+				responseShapingService.computeVersion(semester(0, 120)).length());
+	}
+
+	@Test
+	void projectedAndDeltaResponsesAreSmallerThanFull() throws Exception {
+		AttendanceService.AttendanceAndTimetableDTO full = versioned(semester(0, 90));
+		AttendanceService.AttendanceAndTimetableDTO delta = responseShapingService.delta(versioned(semester(1, 91)), full.getVersion());
+		full.setVersion(null);
+
+		int fullBytes = mapper.writeValueAsBytes(full).length;
+		int projectedBytes = responseShapingService.project(full, responseShapingService.parseFields(MOBILE_FIELDS)).getBytes().length;
+		int deltaBytes = mapper.writeValueAsBytes(delta).length;
+
+		assertTrue(projectedBytes * 4 < fullBytes);
+		assertTrue(deltaBytes * 2 < fullBytes);
+	}
+}
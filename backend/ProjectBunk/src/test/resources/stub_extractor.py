@@ -0,0 +1,47 @@
+import sys
+import os
+import json
+import time
+
+# Stand-in for extractor.py: the roll number picks the phase at which it hangs
+phase = sys.argv[1]
+
+def emit(section, data):
+    print(json.dumps({section: data}), flush=True)
+
+def hang():
+    while True:
+        time.sleep(60)
+
+def fail_at_deadline():
+    # What extractor.py does when remaining() runs out: report it and exit before being killed
+    deadline = int(os.environ["EXTRACTOR_DEADLINE_EPOCH_MS"]) / 1000.0
+    time.sleep(max(0, deadline - time.time()))
+    print(json.dumps({"error": "Extractor deadline exceeded", "timeout": True}), flush=True)
+    sys.exit(124)
+
+if phase == "login":
+    hang()
+
+if phase == "silent":
+    sys.exit(0)
+
+if phase == "broken":
+    print(json.dumps({"error": "Couldn't find the attendance table"}), flush=True)
+    sys.exit(1)
+
+if phase == "noisy":
+    print("DeprecationWarning: something the ERP libraries like to print", flush=True)
+
+emit("attendance", [{"subject": "22CSC01 DBMS", "faculty": "Dr. A", "held": "40", "attended": "32", "percentage": "80.00"}])
+if phase == "attendance":
+    hang()
+if phase == "graceful":
+    fail_at_deadline()
+
+emit("today_timetable", [{"period": "1", "subject": "DBMS"}])
+if phase == "timetable":
+    hang()
+
+emit("datewise_attendance", [{"date": "01-01-2025", "periods": ["P", "P", "A", "-", "-", "-"]}])
+emit("deadline_epoch_ms", os.environ.get("EXTRACTOR_DEADLINE_EPOCH_MS", ""))